@@ -0,0 +1,157 @@
+package com.example.SpringProject1.Controller;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.NoSuchFileException;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.zip.ZipException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.SpringProject1.FileUtill.FileUtil;
+import com.example.SpringProject1.Model.TransferProgress;
+import com.example.SpringProject1.Service.BackupService;
+import com.example.SpringProject1.Service.WriteAdmissionControl;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * REST Controller for administrative operations on the Key-Value store.
+ *
+ * This controller provides endpoints for streaming a backup of the store, restoring the store from a backup,
+ * monitoring the progress of both, and inspecting write admission control. Backups are gzip-compressed JSON in
+ * the same format as the store file, and carry a SHA-256 checksum of the uncompressed JSON in the
+ * `X-Content-SHA256` header.
+ */
+@RestController
+@RequestMapping("/api/kvstore/admin")
+public class KvStoreAdminController {
+
+    // Header carrying the hex SHA-256 checksum of the uncompressed backup
+    public static final String CHECKSUM_HEADER = "X-Content-SHA256";
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    // Key of the async interceptor that releases the backup snapshot
+    private static final String BACKUP_RELEASE_KEY = KvStoreAdminController.class.getName() + ".backupRelease";
+
+    @Autowired
+    private BackupService backupService;  // Injecting the BackupService to handle backup and restore
+
+    @Autowired
+    private WriteAdmissionControl admission;  // Injecting the WriteAdmissionControl to report its metrics
+
+    /**
+     * Streams a point-in-time backup of the store.
+     *
+     * The snapshot is pinned when the request arrives and streamed while writes continue.
+     * Only one backup can run at a time. Streaming is not bounded by the async request timeout
+     * (`spring.mvc.async.request-timeout` is -1), and the snapshot is released when the async request
+     * completes, even if the streaming task never ran.
+     *
+     * @param request the current request, used to register the snapshot release
+     * @return ResponseEntity streaming the compressed backup, HTTP 409 if a backup is already running,
+     *         or HTTP 503 if the store has not been persisted yet
+     * @throws IOException if the store file cannot be opened
+     */
+    @GetMapping("/backup")
+    public ResponseEntity<StreamingResponseBody> backup(HttpServletRequest request) throws IOException {
+        FileUtil.Snapshot snapshot;
+        try {
+            snapshot = backupService.openBackup();
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.CONFLICT);  // HTTP 409 if a backup is already running
+        } catch (NoSuchFileException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);  // HTTP 503 if nothing is persisted yet
+        }
+
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(BACKUP_RELEASE_KEY,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest webRequest, Callable<T> task) {
+                        backupService.releaseBackup(snapshot);
+                    }
+                });
+
+        StreamingResponseBody body = out -> backupService.streamBackup(snapshot, out);
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"kvstore-backup.json.gz\"")
+                .header(CHECKSUM_HEADER, snapshot.getChecksum())
+                .body(body);
+    }
+
+    /**
+     * Restores the store from a backup.
+     *
+     * The request body is a backup produced by the backup endpoint. It is read incrementally and replaces the
+     * store only if it is complete and, when the checksum header is given, the checksum matches.
+     *
+     * @param body the compressed backup
+     * @param contentLength size of the compressed backup, used for progress reporting (optional)
+     * @param checksum expected SHA-256 of the uncompressed backup (optional)
+     * @return ResponseEntity with a success or failure message and appropriate HTTP status
+     */
+    @PostMapping("/restore")
+    public ResponseEntity<String> restore(InputStream body,
+                                          @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+                                          @RequestHeader(value = CHECKSUM_HEADER, required = false) String checksum) {
+        try {
+            long restored = backupService.restore(body, contentLength, checksum);
+            return new ResponseEntity<>("Restored " + restored + " entries!", HttpStatus.OK);  // HTTP 200 on success
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);  // HTTP 409 if a restore is already running
+        } catch (IllegalArgumentException | ZipException | EOFException | JsonProcessingException e) {
+            return new ResponseEntity<>("Invalid backup: " + e.getMessage(), HttpStatus.BAD_REQUEST);  // HTTP 400 for bad input
+        } catch (IOException e) {
+            return new ResponseEntity<>("Restore failed!", HttpStatus.INTERNAL_SERVER_ERROR);  // HTTP 500 on I/O failure
+        }
+    }
+
+    /**
+     * Returns the progress of the current or most recent backup.
+     *
+     * @return ResponseEntity with the backup progress
+     */
+    @GetMapping("/backup/progress")
+    public ResponseEntity<TransferProgress> backupProgress() {
+        return new ResponseEntity<>(backupService.getBackupProgress(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the progress of the current or most recent restore.
+     *
+     * @return ResponseEntity with the restore progress
+     */
+    @GetMapping("/restore/progress")
+    public ResponseEntity<TransferProgress> restoreProgress() {
+        return new ResponseEntity<>(backupService.getRestoreProgress(), HttpStatus.OK);
+    }
+
+    /**
+     * Returns the write admission metrics: writes pending persistence, writes waiting for admission,
+     * average flush latency and the number of rejected writes.
+     *
+     * @return ResponseEntity with the admission metrics
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, Object>> admission() {
+        return new ResponseEntity<>(admission.getStats(), HttpStatus.OK);
+    }
+}
@@ -3,9 +3,11 @@ package com.example.SpringProject1.Controller;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -15,6 +17,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.example.SpringProject1.Model.KvEntry;
 import com.example.SpringProject1.Service.KvStoreService;
+import com.example.SpringProject1.Service.StoreOverloadedException;
 
 /**
  * REST Controller for handling CRUD operations on a Key-Value store.
@@ -27,6 +30,7 @@ import com.example.SpringProject1.Service.KvStoreService;
  * - The class uses Spring's `@RestController` annotation to define a RESTful web service.
  * - Each method handles one specific CRUD operation and is mapped to the corresponding HTTP verb.
  * - The class uses dependency injection to obtain a reference to the `KvStoreService`, which performs the actual operations on the key-value store.
+ * - Writes shed by the service's admission control are answered with HTTP 429 and a `Retry-After` header.
  */
 @RestController
 @RequestMapping("/api/kvstore")
@@ -145,4 +149,19 @@ public class KvStoreController {
             return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);  // HTTP 400 if there is an error
         }
     }
+
+    /**
+     * Handles writes rejected because the store is overloaded.
+     * 
+     * The client is told to back off for the time the service estimates it needs to drain the writes already queued.
+     * 
+     * @param e the exception raised by the service's admission control
+     * @return ResponseEntity with HTTP 429 and a `Retry-After` header
+     */
+    @ExceptionHandler(StoreOverloadedException.class)
+    public ResponseEntity<String> overloaded(StoreOverloadedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());  // HTTP 429 so clients back off instead of timing out
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.SpringProject1.FileUtill;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -7,15 +8,28 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -26,6 +40,9 @@ public class FileUtil {
 
     private final ObjectMapper objectMapper;
 
+    // SHA-256 of the last content written to each file, keyed by absolute path
+    private final Map<Path, String> checksums = new ConcurrentHashMap<>();
+
     @Autowired
     public FileUtil(ObjectMapper objectMapper) {
         this.objectMapper = objectMapper;
@@ -54,23 +71,117 @@ public class FileUtil {
     /**
      * Save data to a file in JSON format.
      *
+     * The data is written to a temporary file next to the target, which then
+     * atomically replaces it, so readers never observe a truncated or partially
+     * written file.
+     *
      * @param filePath the path to the file.
      * @param data     the data to be saved.
      */
-    public void saveToFile(String filePath, Object data) {
+    public synchronized void saveToFile(String filePath, Object data) {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
         try {
-            ensureFileExists(filePath);
-            try (FileOutputStream fos = new FileOutputStream(filePath);
-                 FileChannel channel = fos.getChannel();
-                 FileLock lock = channel.lock()) {
-                objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(filePath), data);
+            Files.createDirectories(target.getParent());
+            MessageDigest digest = sha256();
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                OutputStream out = new DigestOutputStream(Channels.newOutputStream(channel), digest);
+                objectMapper.writerWithDefaultPrettyPrinter()
+                        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                        .writeValue(out, data);
+                channel.force(true);
             }
+            moveReplacing(temp, target);
+            checksums.put(target, HexFormat.of().formatHex(digest.digest()));
         } catch (IOException e) {
             logger.error("Error saving data to file: {}", e.getMessage());
             throw new RuntimeException("Error saving data to file: " + filePath, e);
         }
     }
 
+    /**
+     * Opens a point-in-time snapshot of a file for streaming. Because
+     * {@link #saveToFile(String, Object)} replaces the file instead of rewriting
+     * it, the opened stream keeps reading the same content even if the file is
+     * saved again while it is being read. Only opening the file holds the lock
+     * shared with saves; hashing a file not yet hashed by this process happens
+     * outside it, so saves are never blocked by a snapshot.
+     *
+     * @param filePath the path to the file.
+     * @return the snapshot; the caller must close it.
+     * @throws NoSuchFileException if the file has not been saved yet.
+     * @throws IOException         if the file cannot be opened or read.
+     */
+    public Snapshot openSnapshot(String filePath) throws IOException {
+        Path target = Paths.get(filePath).toAbsolutePath();
+        FileChannel channel;
+        String checksum;
+        synchronized (this) {
+            channel = FileChannel.open(target, StandardOpenOption.READ);
+            checksum = checksums.get(target);
+        }
+        try {
+            if (checksum == null) {
+                // File was written before this process started; hash it once
+                checksum = checksumOf(channel);
+                // A save that replaced the file meanwhile has already recorded its own checksum
+                checksums.putIfAbsent(target, checksum);
+            }
+            return new Snapshot(Channels.newInputStream(channel), channel.size(), checksum);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * An open, immutable view of a file together with its size and the SHA-256
+     * checksum of its content.
+     */
+    public static final class Snapshot implements Closeable {
+
+        private final InputStream inputStream;
+        private final long size;
+        private final String checksum;
+
+        private Snapshot(InputStream inputStream, long size, String checksum) {
+            this.inputStream = inputStream;
+            this.size = size;
+            this.checksum = checksum;
+        }
+
+        public InputStream getInputStream() {
+            return inputStream;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public String getChecksum() {
+            return checksum;
+        }
+
+        @Override
+        public void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * Creates a SHA-256 message digest.
+     *
+     * @return a new MessageDigest instance.
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     /**
      * Load data from a file into a Map with specified value type.
      *
@@ -110,16 +221,39 @@ public class FileUtil {
     }
 
     /**
-     * Ensures that a file exists, creating it if necessary.
+     * Computes the SHA-256 checksum of an open file's content. Uses positional
+     * reads, so the channel's position is left untouched.
      *
-     * @param filePath the path to the file.
-     * @throws IOException if the file cannot be created.
+     * @param channel the open file.
+     * @return the hex-encoded checksum.
+     * @throws IOException if the file cannot be read.
+     */
+    private String checksumOf(FileChannel channel) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = 0;
+        int read;
+        while ((read = channel.read(buffer, position)) != -1) {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+            position += read;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Moves a file over the target, atomically where the file system allows it.
+     *
+     * @param source the file to move.
+     * @param target the file to replace.
+     * @throws IOException if the file cannot be moved.
      */
-    private void ensureFileExists(String filePath) throws IOException {
-        File file = new File(filePath);
-        if (!file.exists()) {
-            Files.createDirectories(Paths.get(file.getParent()));
-            file.createNewFile();
+    private void moveReplacing(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 }
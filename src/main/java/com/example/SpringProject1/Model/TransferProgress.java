@@ -0,0 +1,108 @@
+package com.example.SpringProject1.Model;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+/**
+ * Progress of a backup or restore. Updated by the thread running the transfer
+ * and read concurrently by the progress endpoints.
+ */
+public final class TransferProgress {
+
+    public enum Status { IDLE, RUNNING, COMPLETED, FAILED }
+
+    private volatile Status status = Status.IDLE;
+
+    // Uncompressed bytes for a backup, compressed request bytes for a restore
+    private volatile long bytesProcessed;
+
+    // Expected total bytes, or -1 if unknown
+    private volatile long bytesTotal = -1;
+
+    private volatile long entriesProcessed;
+
+    private volatile String checksum;
+
+    private volatile String error;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private volatile LocalDateTime startedAt;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private volatile LocalDateTime finishedAt;
+
+    // Lifecycle
+    public void start(long bytesTotal) {
+        this.bytesProcessed = 0;
+        this.entriesProcessed = 0;
+        this.bytesTotal = bytesTotal;
+        this.checksum = null;
+        this.error = null;
+        this.startedAt = LocalDateTime.now();
+        this.finishedAt = null;
+        this.status = Status.RUNNING;
+    }
+
+    public void complete(String checksum) {
+        this.checksum = checksum;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(String error) {
+        this.error = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    // Only the transfer thread updates the counters, so plain increments are safe
+    public void addBytes(long count) {
+        bytesProcessed += count;
+    }
+
+    public void addEntry() {
+        entriesProcessed++;
+    }
+
+    // Getters
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getBytesProcessed() {
+        return bytesProcessed;
+    }
+
+    public long getBytesTotal() {
+        return bytesTotal;
+    }
+
+    public long getEntriesProcessed() {
+        return entriesProcessed;
+    }
+
+    public Integer getPercentComplete() {
+        long total = bytesTotal;
+        if (total <= 0) {
+            return (status == Status.COMPLETED) ? 100 : null;
+        }
+        return (int) Math.min(100, bytesProcessed * 100 / total);
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+}
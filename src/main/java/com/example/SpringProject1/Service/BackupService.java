@@ -0,0 +1,284 @@
+package com.example.SpringProject1.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.NoSuchFileException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.SpringProject1.FileUtill.FileUtil;
+import com.example.SpringProject1.Model.TransferProgress;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Service class that produces and ingests gzip-compressed backups of the
+ * key-value store. Backups stream a point-in-time snapshot of the persisted
+ * store file and restores parse the upload incrementally, so neither side
+ * buffers the whole payload in memory. Both carry a SHA-256 checksum of the
+ * uncompressed JSON and report their progress.
+ */
+@Service
+public class BackupService {
+
+	// Logger instance for logging information, warnings, and errors
+	private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+	// Buffer size used when copying backup data
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	// File path of the persisted store (same property as KvStoreService)
+	@Value("${kvstore.file.path:kvstore.json}")
+	private String filePath;
+
+	private final KvStoreService storeService;
+
+	private final FileUtil fileUtil;
+
+	private final ObjectMapper objectMapper;
+
+	// Progress of the current or most recent backup and restore
+	private final TransferProgress backupProgress = new TransferProgress();
+	private final TransferProgress restoreProgress = new TransferProgress();
+
+	// Only one backup and one restore may run at a time. The backup slot holds a
+	// placeholder while the snapshot is opened, then the snapshot itself
+	private final AtomicReference<Object> activeBackup = new AtomicReference<>();
+	private final AtomicBoolean restoreRunning = new AtomicBoolean();
+
+	@Autowired
+	public BackupService(KvStoreService storeService, FileUtil fileUtil, ObjectMapper objectMapper) {
+		this.storeService = storeService;
+		this.fileUtil = fileUtil;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Pins a point-in-time snapshot of the persisted store for a backup. Writes
+	 * continue while the snapshot is streamed.
+	 *
+	 * @return The snapshot to pass to {@link #streamBackup(FileUtil.Snapshot, OutputStream)};
+	 *         it must be released with {@link #releaseBackup(FileUtil.Snapshot)}
+	 *         if it is never streamed.
+	 * @throws IllegalStateException if a backup is already running.
+	 * @throws NoSuchFileException   if the store has not been persisted yet.
+	 * @throws IOException           if the store file cannot be opened.
+	 */
+	public FileUtil.Snapshot openBackup() throws IOException {
+		Object placeholder = new Object();
+		if (!activeBackup.compareAndSet(null, placeholder)) {
+			throw new IllegalStateException("A backup is already in progress!");
+		}
+		try {
+			FileUtil.Snapshot snapshot = fileUtil.openSnapshot(filePath);
+			activeBackup.set(snapshot);
+			backupProgress.start(snapshot.getSize());
+			return snapshot;
+		} catch (IOException | RuntimeException e) {
+			activeBackup.set(null);
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes a backup snapshot and frees the backup slot it holds. Safe to call
+	 * more than once, and after the snapshot has been streamed.
+	 *
+	 * @param snapshot Snapshot returned by {@link #openBackup()}.
+	 */
+	public void releaseBackup(FileUtil.Snapshot snapshot) {
+		try {
+			snapshot.close();
+		} catch (IOException e) {
+			logger.warn("Failed to close backup snapshot: {}", e.getMessage());
+		}
+		if (activeBackup.compareAndSet(snapshot, null) && backupProgress.getStatus() == TransferProgress.Status.RUNNING) {
+			backupProgress.fail("Backup was cancelled before it completed.");
+		}
+	}
+
+	/**
+	 * Streams a snapshot as gzip-compressed JSON and closes it.
+	 *
+	 * @param snapshot Snapshot returned by {@link #openBackup()}.
+	 * @param out      Destination of the compressed backup.
+	 * @throws IOException if reading the snapshot or writing the output fails.
+	 */
+	public void streamBackup(FileUtil.Snapshot snapshot, OutputStream out) throws IOException {
+		try {
+			GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+			InputStream in = snapshot.getInputStream();
+			byte[] buffer = new byte[BUFFER_SIZE];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				gzip.write(buffer, 0, read);
+				backupProgress.addBytes(read);
+			}
+			gzip.finish();
+			gzip.flush();
+			backupProgress.complete(snapshot.getChecksum());
+			logger.info("Backup streamed: {} bytes, sha256={}", backupProgress.getBytesProcessed(),
+					snapshot.getChecksum());
+		} catch (IOException | RuntimeException e) {
+			backupProgress.fail(e.getMessage());
+			logger.error("Backup failed.", e);
+			throw e;
+		} finally {
+			releaseBackup(snapshot);
+		}
+	}
+
+	/**
+	 * Restores the store from a gzip-compressed backup. Entries are parsed
+	 * incrementally into a new index, which replaces the live store only once
+	 * the whole upload has been read and its checksum verified. Writes accepted
+	 * while the restore runs are superseded by the restored snapshot. Entries
+	 * whose TTL has passed are skipped, and entries exceeding the key or value
+	 * length limits reject the backup.
+	 *
+	 * @param in               Compressed backup stream.
+	 * @param contentLength    Size of the compressed stream, or null if unknown.
+	 * @param expectedChecksum Hex SHA-256 of the uncompressed JSON, or null to
+	 *                         skip verification.
+	 * @return The number of entries restored.
+	 * @throws IllegalStateException    if a restore is already running.
+	 * @throws IllegalArgumentException if the backup is malformed, holds an entry
+	 *                                  exceeding the length limits, or the
+	 *                                  checksum does not match.
+	 * @throws IOException              if reading the upload fails.
+	 */
+	public long restore(InputStream in, Long contentLength, String expectedChecksum) throws IOException {
+		if (!restoreRunning.compareAndSet(false, true)) {
+			throw new IllegalStateException("A restore is already in progress!");
+		}
+		restoreProgress.start(contentLength != null ? contentLength : -1);
+		try {
+			MessageDigest digest = FileUtil.sha256();
+			CompactKeyIndex restored = new CompactKeyIndex();
+			try (InputStream json = new DigestInputStream(
+					new GZIPInputStream(new ProgressInputStream(in, restoreProgress), BUFFER_SIZE), digest);
+					JsonParser parser = objectMapper.createParser(json)) {
+				// Reads up to end of input, so the digest covers the whole upload
+				readEntries(parser, restored);
+			}
+
+			String checksum = HexFormat.of().formatHex(digest.digest());
+			if (expectedChecksum != null && !expectedChecksum.equalsIgnoreCase(checksum)) {
+				throw new IllegalArgumentException("Checksum mismatch!");
+			}
+
+			storeService.replaceStore(restored);
+			restoreProgress.complete(checksum);
+			logger.info("Restore completed: {} entries, sha256={}", restoreProgress.getEntriesProcessed(), checksum);
+			return restoreProgress.getEntriesProcessed();
+		} catch (IOException | RuntimeException e) {
+			restoreProgress.fail(e.getMessage());
+			logger.error("Restore failed.", e);
+			throw e;
+		} finally {
+			restoreRunning.set(false);
+		}
+	}
+
+	/**
+	 * @return Progress of the current or most recent backup.
+	 */
+	public TransferProgress getBackupProgress() {
+		return backupProgress;
+	}
+
+	/**
+	 * @return Progress of the current or most recent restore.
+	 */
+	public TransferProgress getRestoreProgress() {
+		return restoreProgress;
+	}
+
+	/**
+	 * Reads the persisted store format, a JSON object of key to KvEntry, one
+	 * entry at a time. Entries are held to the same length limits as writes.
+	 */
+	private void readEntries(JsonParser parser, CompactKeyIndex restored) throws IOException {
+		if (parser.nextToken() != JsonToken.START_OBJECT) {
+			throw new IllegalArgumentException("Invalid backup format!");
+		}
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String key = parser.currentName();
+			parser.nextToken();
+			JsonNode node = parser.readValueAsTree();
+			if (node == null || !node.hasNonNull("value")) {
+				throw new IllegalArgumentException("Invalid backup entry: " + key);
+			}
+			String value = node.get("value").asText();
+			if (key.length() > KvStoreService.MAX_KEY_LENGTH || value.length() > KvStoreService.MAX_VALUE_LENGTH) {
+				throw new IllegalArgumentException("Key or value exceeds maximum length!");
+			}
+
+			LocalDateTime ttl;
+			try {
+				ttl = node.hasNonNull("ttl") ? LocalDateTime.parse(node.get("ttl").asText()) : null;
+			} catch (DateTimeParseException e) {
+				throw new IllegalArgumentException("Invalid backup entry: " + key, e);
+			}
+			// Checked per entry, since entries keep expiring while a long restore runs
+			if (ttl != null && !ttl.isAfter(LocalDateTime.now())) {
+				continue;
+			}
+
+			// Bypasses KvEntry, so an entry expiring from here on cannot fail the restore
+			restored.put(key, value, ttl);
+			restoreProgress.addEntry();
+		}
+		if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+			throw new IllegalArgumentException("Invalid backup format!");
+		}
+	}
+
+	/**
+	 * Counts the bytes read from the upload into the restore progress.
+	 */
+	private static final class ProgressInputStream extends FilterInputStream {
+
+		private final TransferProgress progress;
+
+		ProgressInputStream(InputStream in, TransferProgress progress) {
+			super(in);
+			this.progress = progress;
+		}
+
+		@Override
+		public int read() throws IOException {
+			int b = super.read();
+			if (b != -1) {
+				progress.addBytes(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			int read = super.read(b, off, len);
+			if (read > 0) {
+				progress.addBytes(read);
+			}
+			return read;
+		}
+	}
+}
@@ -0,0 +1,492 @@
+package com.example.SpringProject1.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+
+import com.example.SpringProject1.Model.KvEntry;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Memory-compact, concurrent index for the key-value store.
+ *
+ * Keys are kept once, as UTF-8 byte arrays, in open-addressing (linear probing)
+ * tables together with their hash, value and expiry. No per-entry node or
+ * KvEntry object is retained; a KvEntry is only materialized when an entry is
+ * read. The index is split into independent segments, each guarded by its own
+ * StampedLock: lookups run as optimistic (seqlock-style) reads and only fall
+ * back to a read lock when a concurrent write is detected.
+ *
+ * Expired entries are invisible to {@link #get(String)} but stay in the table
+ * until they are removed, mirroring the behaviour of the previous map-based
+ * store.
+ */
+@JsonSerialize(using = CompactKeyIndex.JsonWriter.class)
+public class CompactKeyIndex {
+
+	// Number of independent segments (must be a power of two)
+	private static final int SEGMENT_COUNT = 64;
+
+	// Marker stored in the expiry slot of entries without a TTL
+	private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+	private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+	public CompactKeyIndex() {
+		for (int i = 0; i < SEGMENT_COUNT; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * Returns the entry stored under the given key.
+	 *
+	 * @param key The key to look up.
+	 * @return The entry, or null if the key is absent or its TTL has passed.
+	 */
+	public KvEntry get(String key) {
+		byte[] keyBytes = encode(key);
+		int hash = hash(keyBytes);
+		return segmentFor(hash).get(key, keyBytes, hash);
+	}
+
+	/**
+	 * Stores an entry under the given key unless the key is already present.
+	 *
+	 * @param key   Key of the new entry.
+	 * @param entry Entry holding the value and TTL.
+	 * @return true if the entry was added; false if the key already existed.
+	 */
+	public boolean putIfAbsent(String key, KvEntry entry) {
+		byte[] keyBytes = encode(key);
+		int hash = hash(keyBytes);
+		return segmentFor(hash).put(keyBytes, hash, entry.getValue(), toExpiry(entry.getTtl()), false);
+	}
+
+	/**
+	 * Stores an entry, replacing any existing entry with the same key.
+	 *
+	 * @param key   Key of the entry.
+	 * @param entry Entry holding the value and TTL.
+	 */
+	public void put(String key, KvEntry entry) {
+		put(key, entry.getValue(), entry.getTtl());
+	}
+
+	/**
+	 * Stores a value, replacing any existing entry with the same key. Unlike
+	 * {@link KvEntry}, the TTL is not required to lie in the future; an entry
+	 * that has already expired is simply never returned.
+	 *
+	 * @param key   Key of the entry.
+	 * @param value Value of the entry.
+	 * @param ttl   Expiry time, or null if the entry never expires.
+	 */
+	public void put(String key, String value, LocalDateTime ttl) {
+		byte[] keyBytes = encode(key);
+		int hash = hash(keyBytes);
+		segmentFor(hash).put(keyBytes, hash, value, toExpiry(ttl), true);
+	}
+
+	/**
+	 * Copies all entries of the given map into the index.
+	 *
+	 * @param entries Entries keyed by their store key.
+	 */
+	public void putAll(Map<String, KvEntry> entries) {
+		entries.forEach(this::put);
+	}
+
+	/**
+	 * Removes the entry stored under the given key.
+	 *
+	 * @param key The key of the entry to remove.
+	 * @return true if an entry was removed; false if the key was not present.
+	 */
+	public boolean remove(String key) {
+		byte[] keyBytes = encode(key);
+		int hash = hash(keyBytes);
+		return segmentFor(hash).remove(keyBytes, hash);
+	}
+
+	/**
+	 * Removes the entry stored under the given key if its TTL has passed. The
+	 * key is probed optimistically, so the segment's write lock is only taken
+	 * when there is an expired entry to remove.
+	 *
+	 * @param key The key of the entry to remove.
+	 * @return true if an expired entry was removed; false otherwise.
+	 */
+	public boolean removeIfExpired(String key) {
+		byte[] keyBytes = encode(key);
+		int hash = hash(keyBytes);
+		return segmentFor(hash).removeIfExpired(keyBytes, hash, nowMillis());
+	}
+
+	/**
+	 * @return The number of entries in the index, including expired ones. Not
+	 *         an atomic snapshot while writes are in progress.
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.count;
+		}
+		return size;
+	}
+
+	/**
+	 * Visits every entry in the index, including expired ones. Each segment is
+	 * copied under its read lock and visited outside of it, so the visit is
+	 * consistent per segment but not across the whole index.
+	 *
+	 * @param action Callback receiving the key, value and TTL (null if none).
+	 */
+	public void forEach(EntryVisitor action) {
+		for (Segment segment : segments) {
+			segment.forEach(action);
+		}
+	}
+
+	/**
+	 * Callback used by {@link CompactKeyIndex#forEach(EntryVisitor)}.
+	 */
+	@FunctionalInterface
+	public interface EntryVisitor {
+		void visit(String key, String value, LocalDateTime ttl);
+	}
+
+	private Segment segmentFor(int hash) {
+		// High bits pick the segment; low bits pick the slot within it
+		return segments[hash >>> 26];
+	}
+
+	private static byte[] encode(String key) {
+		return key.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int hash(byte[] keyBytes) {
+		int h = Arrays.hashCode(keyBytes);
+		h ^= (h >>> 16);
+		h *= 0x85ebca6b;
+		h ^= (h >>> 13);
+		// Zero marks an empty slot, so it is never a valid hash
+		return (h == 0) ? 1 : h;
+	}
+
+	private static long toExpiry(LocalDateTime ttl) {
+		return (ttl != null) ? ttl.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_EXPIRY;
+	}
+
+	private static LocalDateTime fromExpiry(long expiry) {
+		return (expiry != NO_EXPIRY) ? LocalDateTime.ofInstant(Instant.ofEpochMilli(expiry), ZoneOffset.UTC) : null;
+	}
+
+	private static long nowMillis() {
+		return toExpiry(LocalDateTime.now());
+	}
+
+	/**
+	 * Fixed-capacity parallel arrays backing one segment. A resize swaps in a
+	 * new Table, so an optimistic reader always sees arrays of matching length.
+	 */
+	private static final class Table {
+		final int[] hashes;
+		final byte[][] keys;
+		final String[] values;
+		final long[] expiries;
+
+		Table(int capacity) {
+			hashes = new int[capacity];
+			keys = new byte[capacity][];
+			values = new String[capacity];
+			expiries = new long[capacity];
+		}
+	}
+
+	/**
+	 * One open-addressing hash table guarded by its own lock.
+	 */
+	private static final class Segment {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		private final StampedLock lock = new StampedLock();
+
+		private Table table = new Table(INITIAL_CAPACITY);
+
+		// Only written under the write lock; volatile so size() can sum it unlocked
+		private volatile int count;
+
+		KvEntry get(String key, byte[] keyBytes, int hash) {
+			long stamp = lock.tryOptimisticRead();
+			String value = null;
+			long expiry = 0;
+			if (stamp != 0) {
+				Table t = table;
+				int slot = find(t, keyBytes, hash);
+				if (slot >= 0) {
+					value = t.values[slot];
+					expiry = t.expiries[slot];
+				}
+			}
+			if (stamp == 0 || !lock.validate(stamp)) {
+				// A writer interfered; retry under the read lock
+				stamp = lock.readLock();
+				try {
+					Table t = table;
+					int slot = find(t, keyBytes, hash);
+					value = (slot >= 0) ? t.values[slot] : null;
+					expiry = (slot >= 0) ? t.expiries[slot] : 0;
+				} finally {
+					lock.unlockRead(stamp);
+				}
+			}
+			if (value == null || expiry <= nowMillis()) {
+				return null;
+			}
+			try {
+				return new KvEntry(key, value, fromExpiry(expiry));
+			} catch (IllegalArgumentException e) {
+				// The TTL passed between the expiry check and building the entry
+				return null;
+			}
+		}
+
+		/**
+		 * @return true if a new slot was taken; false if the key already existed
+		 *         (in which case it is overwritten only when replace is set).
+		 */
+		boolean put(byte[] keyBytes, int hash, String value, long expiry, boolean replace) {
+			long stamp = lock.writeLock();
+			try {
+				Table t = table;
+				int slot = find(t, keyBytes, hash);
+				if (slot >= 0) {
+					if (replace) {
+						t.values[slot] = value;
+						t.expiries[slot] = expiry;
+					}
+					return false;
+				}
+				if ((count + 1) * 4 > t.hashes.length * 3) {
+					t = resize(t);
+				}
+				insert(t, keyBytes, hash, value, expiry);
+				count++;
+				return true;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		boolean remove(byte[] keyBytes, int hash) {
+			long stamp = lock.writeLock();
+			try {
+				Table t = table;
+				int slot = find(t, keyBytes, hash);
+				if (slot < 0) {
+					return false;
+				}
+				deleteSlot(t, slot);
+				count--;
+				return true;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		boolean removeIfExpired(byte[] keyBytes, int hash, long now) {
+			long stamp = lock.tryOptimisticRead();
+			boolean expired = false;
+			if (stamp != 0) {
+				Table t = table;
+				int slot = find(t, keyBytes, hash);
+				expired = slot >= 0 && t.expiries[slot] <= now;
+			}
+			if (stamp == 0 || !lock.validate(stamp)) {
+				stamp = lock.readLock();
+				try {
+					Table t = table;
+					int slot = find(t, keyBytes, hash);
+					expired = slot >= 0 && t.expiries[slot] <= now;
+				} finally {
+					lock.unlockRead(stamp);
+				}
+			}
+			if (!expired) {
+				return false;
+			}
+
+			stamp = lock.writeLock();
+			try {
+				// Re-check: the entry may have been removed or recreated meanwhile
+				Table t = table;
+				int slot = find(t, keyBytes, hash);
+				if (slot < 0 || t.expiries[slot] > now) {
+					return false;
+				}
+				deleteSlot(t, slot);
+				count--;
+				return true;
+			} finally {
+				lock.unlockWrite(stamp);
+			}
+		}
+
+		void forEach(EntryVisitor action) {
+			byte[][] keys;
+			String[] values;
+			long[] expiries;
+			int n = 0;
+			long stamp = lock.readLock();
+			try {
+				Table t = table;
+				keys = new byte[count][];
+				values = new String[count];
+				expiries = new long[count];
+				for (int i = 0; i < t.hashes.length; i++) {
+					if (t.hashes[i] != 0) {
+						keys[n] = t.keys[i];
+						values[n] = t.values[i];
+						expiries[n] = t.expiries[i];
+						n++;
+					}
+				}
+			} finally {
+				lock.unlockRead(stamp);
+			}
+			for (int i = 0; i < n; i++) {
+				action.visit(new String(keys[i], StandardCharsets.UTF_8), values[i], fromExpiry(expiries[i]));
+			}
+		}
+
+		/**
+		 * Looks up the slot holding the key. Safe to call without the lock: the
+		 * probe is bounded by the table length and tolerates torn slots, and the
+		 * caller validates the result against the lock stamp.
+		 *
+		 * @return The slot index, or -1 if the key is not present.
+		 */
+		private static int find(Table t, byte[] keyBytes, int hash) {
+			int mask = t.hashes.length - 1;
+			int slot = hash & mask;
+			for (int probes = 0; probes <= mask; probes++) {
+				int h = t.hashes[slot];
+				if (h == 0) {
+					return -1;
+				}
+				if (h == hash) {
+					byte[] k = t.keys[slot];
+					if (k != null && Arrays.equals(k, keyBytes)) {
+						return slot;
+					}
+				}
+				slot = (slot + 1) & mask;
+			}
+			return -1;
+		}
+
+		private static void insert(Table t, byte[] keyBytes, int hash, String value, long expiry) {
+			int mask = t.hashes.length - 1;
+			int slot = hash & mask;
+			while (t.hashes[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			t.keys[slot] = keyBytes;
+			t.values[slot] = value;
+			t.expiries[slot] = expiry;
+			t.hashes[slot] = hash;
+		}
+
+		/**
+		 * Clears a slot using backward-shift deletion, so no tombstones are left
+		 * behind and probe sequences stay short.
+		 */
+		private static void deleteSlot(Table t, int slot) {
+			int mask = t.hashes.length - 1;
+			int hole = slot;
+			int next = (hole + 1) & mask;
+			while (t.hashes[next] != 0) {
+				int home = t.hashes[next] & mask;
+				// Move the entry back if the hole lies on its probe path
+				if (((next - home) & mask) >= ((next - hole) & mask)) {
+					t.hashes[hole] = t.hashes[next];
+					t.keys[hole] = t.keys[next];
+					t.values[hole] = t.values[next];
+					t.expiries[hole] = t.expiries[next];
+					hole = next;
+				}
+				next = (next + 1) & mask;
+			}
+			t.hashes[hole] = 0;
+			t.keys[hole] = null;
+			t.values[hole] = null;
+			t.expiries[hole] = 0;
+		}
+
+		private Table resize(Table old) {
+			Table t = new Table(old.hashes.length * 2);
+			for (int i = 0; i < old.hashes.length; i++) {
+				if (old.hashes[i] != 0) {
+					insert(t, old.keys[i], old.hashes[i], old.values[i], old.expiries[i]);
+				}
+			}
+			table = t;
+			return t;
+		}
+	}
+
+	/**
+	 * Streams the index as a JSON object of key to KvEntry, in the same shape
+	 * the map-based store was persisted in, without building an intermediate
+	 * map. Entries are written field by field because expired entries cannot be
+	 * turned back into a KvEntry.
+	 */
+	static class JsonWriter extends StdSerializer<CompactKeyIndex> {
+
+		// Same format as the @JsonFormat pattern on KvEntry.ttl
+		private static final DateTimeFormatter TTL_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+		JsonWriter() {
+			super(CompactKeyIndex.class);
+		}
+
+		@Override
+		public void serialize(CompactKeyIndex index, JsonGenerator gen, SerializerProvider provider)
+				throws IOException {
+			gen.writeStartObject();
+			try {
+				index.forEach((key, value, ttl) -> {
+					try {
+						gen.writeFieldName(key);
+						gen.writeStartObject();
+						gen.writeStringField("key", key.trim());
+						gen.writeStringField("value", value);
+						if (ttl != null) {
+							gen.writeStringField("ttl", ttl.format(TTL_FORMAT));
+						} else {
+							gen.writeNullField("ttl");
+						}
+						gen.writeEndObject();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			gen.writeEndObject();
+		}
+	}
+}
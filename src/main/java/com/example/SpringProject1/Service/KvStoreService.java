@@ -2,7 +2,8 @@ package com.example.SpringProject1.Service;
 
 import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,8 +25,13 @@ public class KvStoreService {
 	// Logger instance for logging information, warnings, and errors
 	private static final Logger logger = LoggerFactory.getLogger(KvStoreService.class);
 
-	// In-memory store for key-value pairs
-	private final Map<String, KvEntry> store = new ConcurrentHashMap<>();
+	// Maximum key length and value length (in characters) accepted by the store
+	static final int MAX_KEY_LENGTH = 32;
+	static final int MAX_VALUE_LENGTH = 16 * 1024;
+
+	// In-memory store for key-value pairs, indexed by compact UTF-8 keys
+	// (replaced as a whole when a backup is restored)
+	private volatile CompactKeyIndex store = new CompactKeyIndex();
 
 	// File path for persisting the store data (can be configured through
 	// application properties)
@@ -35,15 +41,26 @@ public class KvStoreService {
 	// File utility for loading and saving data to/from file
 	private FileUtil fileUtil;
 
+	// Admission control bounding the writes queued behind file saves
+	private WriteAdmissionControl admission;
+
+	// Sequence number of the latest mutation, and of the latest one persisted
+	// (guarded by persistLock); lets one file save cover several queued writes
+	private final AtomicLong mutationSeq = new AtomicLong();
+	private final Object persistLock = new Object();
+	private long persistedSeq;
+
 	/**
 	 * Constructor for KvStoreService. The constructor loads the data from a file if
 	 * it exists, or starts with an empty store.
 	 *
-	 * @param fileUtil FileUtil instance used to load and save data to a file.
+	 * @param fileUtil  FileUtil instance used to load and save data to a file.
+	 * @param admission Admission control applied to mutations.
 	 */
 	@Autowired
-	public KvStoreService(FileUtil fileUtil) {
+	public KvStoreService(FileUtil fileUtil, WriteAdmissionControl admission) {
 		this.fileUtil = fileUtil;
+		this.admission = admission;
 	}
 
 	/**
@@ -73,6 +90,7 @@ public class KvStoreService {
 	 * @param ttlSeconds Time-to-live (TTL) in seconds. If null, the entry never
 	 *                   expires.
 	 * @return A message indicating whether the creation was successful or failed.
+	 * @throws StoreOverloadedException if the write is shed by admission control.
 	 */
 	public String create(String key, String value, Integer ttlSeconds) {
 		// Validate the key and value
@@ -81,27 +99,32 @@ public class KvStoreService {
 		}
 
 		// Check for length constraints
-		if (key.length() > 32 || value.length() > 16 * 1024) {
+		if (key.length() > MAX_KEY_LENGTH || value.length() > MAX_VALUE_LENGTH) {
 			return "Key or value exceeds maximum length!";
 		}
 
-		// Ensure the key does not already exist
-		if (store.containsKey(key)) {
-			return "Key already exists!";
-		}
+		admission.acquire();
+		try {
+			// Set TTL if provided, else leave it as null (no expiry)
+			LocalDateTime ttl = (ttlSeconds != null) ? LocalDateTime.now().plusSeconds(ttlSeconds) : null;
 
-		// Set TTL if provided, else leave it as null (no expiry)
-		LocalDateTime ttl = (ttlSeconds != null) ? LocalDateTime.now().plusSeconds(ttlSeconds) : null;
-		store.put(key, new KvEntry(key, value, ttl));
+			// Add the entry unless the key already exists
+			if (!store.putIfAbsent(key, new KvEntry(key, value, ttl))) {
+				return "Key already exists!";
+			}
 
-		// Persist the updated store to a file
-		persistStore();
+			// Persist the updated store to a file
+			persistStore();
+		} finally {
+			admission.release();
+		}
 
 		return "Key-Value pair created!";
 	}
 
 	/**
-	 * Reads a value from the store by its key.
+	 * Reads a value from the store by its key. Reads bypass admission control and
+	 * never wait for the store to be saved.
 	 * 
 	 * @param key The key to search for in the store.
 	 * @return The corresponding KvEntry if found and not expired; null if not found
@@ -113,12 +136,14 @@ public class KvStoreService {
 			return null;
 		}
 
+		// The index hides entries whose TTL has passed
 		KvEntry entry = store.get(key);
 
 		// Check if the entry has expired or does not exist
-		if (entry == null || isExpired(entry)) {
-			store.remove(key); // Remove expired or non-existent entries
-			persistStore();
+		if (entry == null) {
+			// Drop the entry if it is present but expired; the removal is saved with
+			// the next write. Misses on absent keys take no write lock.
+			store.removeIfExpired(key);
 			return null;
 		}
 
@@ -130,16 +155,25 @@ public class KvStoreService {
 	 * 
 	 * @param key The key of the entry to delete.
 	 * @return A message indicating whether the deletion was successful or not.
+	 * @throws StoreOverloadedException if the write is shed by admission control.
 	 */
 	public String delete(String key) {
 		if (key == null || key.trim().isEmpty()) {
 			return "Key cannot be null or empty!";
 		}
 
-		KvEntry removed = store.remove(key);
-		persistStore();
+		boolean removed;
+		admission.acquire();
+		try {
+			removed = store.remove(key);
+			if (removed) {
+				persistStore();
+			}
+		} finally {
+			admission.release();
+		}
 
-		return (removed != null) ? "Key deleted!" : "Key not found!";
+		return removed ? "Key deleted!" : "Key not found!";
 	}
 
 	/**
@@ -149,6 +183,7 @@ public class KvStoreService {
 	 * @param ttlSeconds Time-to-live (TTL) in seconds for the batch of entries. If
 	 *                   null, no expiry.
 	 * @return A message indicating the result of the batch creation process.
+	 * @throws StoreOverloadedException if the write is shed by admission control.
 	 */
 	public String batchCreate(Map<String, String> entries, Integer ttlSeconds) {
 		// Validate the batch size (ensure it does not exceed 100 entries)
@@ -156,38 +191,59 @@ public class KvStoreService {
 			return "Invalid batch size!";
 		}
 
-		// Iterate through the entries and add valid ones to the store
-		entries.forEach((key, value) -> {
-			if (key.length() <= 32 && value.length() <= 16 * 1024 && !store.containsKey(key)) {
-				LocalDateTime ttl = (ttlSeconds != null) ? LocalDateTime.now().plusSeconds(ttlSeconds) : null;
-				store.put(key, new KvEntry(key, value, ttl));
-			}
-		});
+		admission.acquire();
+		try {
+			// Iterate through the entries and add valid ones to the store
+			entries.forEach((key, value) -> {
+				if (key.length() <= MAX_KEY_LENGTH && value.length() <= MAX_VALUE_LENGTH) {
+					LocalDateTime ttl = (ttlSeconds != null) ? LocalDateTime.now().plusSeconds(ttlSeconds) : null;
+					store.putIfAbsent(key, new KvEntry(key, value, ttl));
+				}
+			});
 
-		persistStore();
+			persistStore();
+		} finally {
+			admission.release();
+		}
 
 		return "Batch created successfully!";
 	}
 
 	/**
-	 * Checks if the given entry has expired based on its TTL.
+	 * Replaces the whole store with the given entries and persists it. Used to
+	 * restore a backup.
 	 * 
-	 * @param entry The KvEntry to check.
-	 * @return true if the entry has expired; false otherwise.
+	 * @param restored The index holding the restored entries.
 	 */
-	private boolean isExpired(KvEntry entry) {
-		return entry.getTtl() != null && entry.getTtl().isBefore(LocalDateTime.now());
+	public void replaceStore(CompactKeyIndex restored) {
+		store = restored;
+		persistStore();
+		logger.info("Store replaced with {} restored entries.", restored.size());
 	}
 
 	/**
-	 * Persists the current state of the store to a file.
+	 * Persists the current state of the store to a file. Must be called after
+	 * the mutation it persists. Saves are serialized; a caller whose mutation was
+	 * already captured by a save that started after it returns without saving
+	 * again, so a burst of writes costs a few file rewrites rather than one each.
 	 */
 	private void persistStore() {
-		try {
-			fileUtil.saveToFile(filePath, store); // Save the current store data to a file
-			logger.info("Store saved to file successfully.");
-		} catch (Exception e) {
-			logger.error("Error saving store to file.", e); // Log any error that occurs during file saving
+		long seq = mutationSeq.incrementAndGet();
+		synchronized (persistLock) {
+			if (persistedSeq >= seq) {
+				return; // Already saved by a later flush
+			}
+			long target = mutationSeq.get();
+			long start = System.nanoTime();
+			try {
+				fileUtil.saveToFile(filePath, store); // Save the current store data to a file
+				persistedSeq = target;
+				logger.info("Store saved to file successfully.");
+			} catch (Exception e) {
+				logger.error("Error saving store to file.", e); // Log any error that occurs during file saving
+			} finally {
+				admission.recordFlush(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			}
 		}
 	}
 }
@@ -0,0 +1,22 @@
+package com.example.SpringProject1.Service;
+
+/**
+ * Thrown when a write is shed by {@link WriteAdmissionControl} because the
+ * store cannot persist writes fast enough.
+ */
+public class StoreOverloadedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	// Suggested delay before the client retries
+	private final long retryAfterSeconds;
+
+	public StoreOverloadedException(String message, long retryAfterSeconds) {
+		super(message);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+}
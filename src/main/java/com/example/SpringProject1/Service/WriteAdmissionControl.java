@@ -0,0 +1,143 @@
+package com.example.SpringProject1.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Admission control for store mutations. Every write holds a permit until it
+ * has been persisted, which bounds the number of writes queued behind file
+ * rewrites. Because saves are coalesced, all pending writes are persisted by
+ * the next flush, so writes waiting for a permit are admitted in batches of
+ * the permit count, one batch per flush. When the flush latency predicts that
+ * a write would wait longer than the configured limit, or when no permit
+ * frees up within that limit, the write is shed with a
+ * {@link StoreOverloadedException} carrying a retry hint. Reads never pass
+ * through here.
+ */
+@Component
+public class WriteAdmissionControl {
+
+	// Logger instance for logging information, warnings, and errors
+	private static final Logger logger = LoggerFactory.getLogger(WriteAdmissionControl.class);
+
+	// Weight of the newest sample in the flush latency average
+	private static final double LATENCY_SMOOTHING = 0.2;
+
+	private final int maxPendingWrites;
+
+	private final long maxWaitMillis;
+
+	// One permit per write that may be pending persistence
+	private final Semaphore permits;
+
+	// Moving average of flush latency; only updated by the (serialized) flushes
+	private volatile double avgFlushMillis;
+
+	private final AtomicLong rejectedWrites = new AtomicLong();
+
+	public WriteAdmissionControl(@Value("${kvstore.admission.max-pending-writes:64}") int maxPendingWrites,
+			@Value("${kvstore.admission.max-wait-ms:500}") long maxWaitMillis) {
+		if (maxPendingWrites < 1) {
+			throw new IllegalArgumentException("kvstore.admission.max-pending-writes must be at least 1");
+		}
+		this.maxPendingWrites = maxPendingWrites;
+		this.maxWaitMillis = maxWaitMillis;
+		this.permits = new Semaphore(maxPendingWrites, true);
+	}
+
+	/**
+	 * Admits a write, waiting up to the configured time for a permit. Every
+	 * successful call must be paired with {@link #release()}.
+	 *
+	 * @throws StoreOverloadedException if the write is shed.
+	 */
+	public void acquire() {
+		// All permits are taken: shed now if flushes are too slow to free one in time
+		if (permits.availablePermits() == 0) {
+			long estimatedWait = flushesAhead(getQueuedWrites()) * Math.round(avgFlushMillis);
+			if (estimatedWait > maxWaitMillis) {
+				reject("estimated wait " + estimatedWait + " ms exceeds limit");
+			}
+		}
+		try {
+			if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+				reject("too many pending writes");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			reject("interrupted while waiting for admission");
+		}
+	}
+
+	/**
+	 * Releases the permit taken by {@link #acquire()} once the write has been
+	 * persisted.
+	 */
+	public void release() {
+		permits.release();
+	}
+
+	/**
+	 * Records how long a flush of the store to file took.
+	 *
+	 * @param millis Duration of the flush in milliseconds.
+	 */
+	public void recordFlush(long millis) {
+		double avg = avgFlushMillis;
+		avgFlushMillis = (avg == 0) ? millis : avg + LATENCY_SMOOTHING * (millis - avg);
+	}
+
+	/**
+	 * @return The number of admitted writes not yet persisted.
+	 */
+	public int getPendingWrites() {
+		return maxPendingWrites - permits.availablePermits();
+	}
+
+	/**
+	 * @return The number of writes waiting for admission.
+	 */
+	public int getQueuedWrites() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * @return A snapshot of the admission metrics.
+	 */
+	public Map<String, Object> getStats() {
+		Map<String, Object> stats = new LinkedHashMap<>();
+		stats.put("pendingWrites", getPendingWrites());
+		stats.put("queuedWrites", getQueuedWrites());
+		stats.put("maxPendingWrites", maxPendingWrites);
+		stats.put("avgFlushMillis", Math.round(avgFlushMillis));
+		stats.put("maxWaitMillis", maxWaitMillis);
+		stats.put("rejectedWrites", rejectedWrites.get());
+		return stats;
+	}
+
+	/**
+	 * Number of flushes that must complete before a write arriving behind the
+	 * given number of queued writes gets a permit: one for the writes already
+	 * pending, plus one per full batch of queued writes ahead of it.
+	 */
+	private long flushesAhead(int queuedWrites) {
+		return 1 + queuedWrites / maxPendingWrites;
+	}
+
+	private void reject(String reason) {
+		rejectedWrites.incrementAndGet();
+		// Estimate how long the current backlog takes to drain
+		long backlog = flushesAhead(getQueuedWrites()) * Math.max(1, Math.round(avgFlushMillis));
+		long retryAfterSeconds = Math.max(1, (backlog + 999) / 1000);
+		logger.warn("Write rejected: {}; retry after {} s.", reason, retryAfterSeconds);
+		throw new StoreOverloadedException("Store is overloaded, retry later!", retryAfterSeconds);
+	}
+}
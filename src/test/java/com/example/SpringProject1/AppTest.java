@@ -3,6 +3,10 @@ package com.example.SpringProject1;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -13,12 +17,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import com.example.SpringProject1.Controller.KvStoreController;
 import com.example.SpringProject1.Model.KvEntry;
 import com.example.SpringProject1.Service.KvStoreService;
+import com.example.SpringProject1.Service.StoreOverloadedException;
 
 @ExtendWith(MockitoExtension.class)
 public class AppTest {
@@ -114,4 +122,19 @@ public class AppTest {
         assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         assertEquals("Invalid batch size or empty entries!", response.getBody());
     }
+
+    @Test
+    public void testCreate_Overloaded() throws Exception {
+        when(service.create("username", "john_doe", 3600))
+                .thenThrow(new StoreOverloadedException("Store is overloaded, retry later!", 3));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        mockMvc.perform(post("/api/kvstore/create")
+                        .param("key", "username")
+                        .param("value", "john_doe")
+                        .param("ttl", "3600"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"))
+                .andExpect(content().string("Store is overloaded, retry later!"));
+    }
 }
@@ -0,0 +1,211 @@
+package com.example.SpringProject1;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.SpringProject1.FileUtill.FileUtil;
+import com.example.SpringProject1.Model.TransferProgress;
+import com.example.SpringProject1.Service.BackupService;
+import com.example.SpringProject1.Service.KvStoreService;
+import com.example.SpringProject1.Service.WriteAdmissionControl;
+import com.example.SpringProject1.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BackupServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private KvStoreService service;
+
+    private BackupService backupService;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        FileUtil fileUtil = new FileUtil(objectMapper);
+        String filePath = tempDir.resolve("kvstore.json").toString();
+
+        service = new KvStoreService(fileUtil, new WriteAdmissionControl(64, 500));
+        ReflectionTestUtils.setField(service, "filePath", filePath);
+        backupService = new BackupService(service, fileUtil, objectMapper);
+        ReflectionTestUtils.setField(backupService, "filePath", filePath);
+    }
+
+    @Test
+    public void testBackupAndRestore_RoundTrip() throws Exception {
+        service.create("username", "john_doe", null);
+        service.batchCreate(Map.of("email", "john.doe@example.com", "session", "abc"), 3600);
+
+        FileUtil.Snapshot snapshot = backupService.openBackup();
+        String checksum = snapshot.getChecksum();
+        ByteArrayOutputStream backup = new ByteArrayOutputStream();
+        backupService.streamBackup(snapshot, backup);
+        assertEquals(TransferProgress.Status.COMPLETED, backupService.getBackupProgress().getStatus());
+
+        // Writes after the backup are discarded by the restore
+        service.delete("username");
+        service.create("later", "value", null);
+
+        long restored = backupService.restore(new ByteArrayInputStream(backup.toByteArray()),
+                (long) backup.size(), checksum);
+
+        assertEquals(3, restored);
+        assertEquals("john_doe", service.read("username").getValue());
+        assertNotNull(service.read("session").getTtl());
+        assertNull(service.read("later"));
+        assertEquals(100, backupService.getRestoreProgress().getPercentComplete());
+    }
+
+    @Test
+    public void testRestore_ChecksumMismatch() throws Exception {
+        service.create("username", "john_doe", null);
+
+        FileUtil.Snapshot snapshot = backupService.openBackup();
+        ByteArrayOutputStream backup = new ByteArrayOutputStream();
+        backupService.streamBackup(snapshot, backup);
+        service.create("other", "value", null);
+
+        assertThrows(IllegalArgumentException.class, () -> backupService.restore(
+                new ByteArrayInputStream(backup.toByteArray()), null, "0000"));
+
+        assertEquals(TransferProgress.Status.FAILED, backupService.getRestoreProgress().getStatus());
+        assertEquals("value", service.read("other").getValue());  // Store left untouched
+    }
+
+    @Test
+    public void testBackup_NothingPersisted() {
+        assertThrows(NoSuchFileException.class, backupService::openBackup);
+
+        // The failed attempt does not hold the backup slot
+        service.create("username", "john_doe", null);
+        backupService.releaseBackup(assertDoesNotThrow(backupService::openBackup));
+    }
+
+    @Test
+    public void testReleaseBackup_WithoutStreaming() throws Exception {
+        service.create("username", "john_doe", null);
+
+        FileUtil.Snapshot snapshot = backupService.openBackup();
+        assertThrows(IllegalStateException.class, backupService::openBackup);
+
+        backupService.releaseBackup(snapshot);
+
+        assertEquals(TransferProgress.Status.FAILED, backupService.getBackupProgress().getStatus());
+        backupService.releaseBackup(assertDoesNotThrow(backupService::openBackup));
+    }
+
+    @Test
+    public void testRestore_TruncatedUpload() throws Exception {
+        service.create("username", "john_doe", null);
+
+        FileUtil.Snapshot snapshot = backupService.openBackup();
+        ByteArrayOutputStream backup = new ByteArrayOutputStream();
+        backupService.streamBackup(snapshot, backup);
+        byte[] truncated = Arrays.copyOf(backup.toByteArray(), backup.size() - 4);
+
+        assertThrows(EOFException.class, () -> backupService.restore(new ByteArrayInputStream(truncated), null, null));
+    }
+
+    @Test
+    public void testRestore_EntryExpiresDuringRestore() throws Exception {
+        // The second part arrives after the entry's TTL has passed
+        LocalDateTime ttl = LocalDateTime.now().plusNanos(200_000_000);
+        byte[] first = "{\"username\":{\"key\":\"username\",\"value\":\"john_doe\",\"ttl\":null},"
+                .getBytes(StandardCharsets.UTF_8);
+        byte[] second = ("\"session\":{\"key\":\"session\",\"value\":\"abc\",\"ttl\":\"" + ttl + "\"}}")
+                .getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream backup = new ByteArrayOutputStream();
+        int pause;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(backup, true)) {
+            gzip.write(first);
+            gzip.flush();
+            pause = backup.size();
+            gzip.write(second);
+        }
+
+        long restored = backupService.restore(new PausingInputStream(backup.toByteArray(), pause, 400), null, null);
+
+        assertEquals(1, restored);
+        assertEquals("john_doe", service.read("username").getValue());
+        assertNull(service.read("session"));
+    }
+
+    @Test
+    public void testRestore_OversizedEntry() throws Exception {
+        service.create("username", "john_doe", null);
+        String key = "k".repeat(33);
+        ByteArrayOutputStream backup = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(backup)) {
+            gzip.write(("{\"" + key + "\":{\"key\":\"" + key + "\",\"value\":\"v\",\"ttl\":null}}")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> backupService.restore(
+                new ByteArrayInputStream(backup.toByteArray()), null, null));
+
+        assertNull(service.read(key));
+        assertEquals("john_doe", service.read("username").getValue());  // Store left untouched
+    }
+
+    /**
+     * Serves the given bytes, stalling once the first {@code pause} bytes have been read.
+     */
+    private static final class PausingInputStream extends FilterInputStream {
+
+        private final int pause;
+        private final long delayMillis;
+        private int position;
+
+        PausingInputStream(byte[] data, int pause, long delayMillis) {
+            super(new ByteArrayInputStream(data));
+            this.pause = pause;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return (read(b, 0, 1) == -1) ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position == pause) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            int read = super.read(b, off, (position < pause) ? Math.min(len, pause - position) : len);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+    }
+}
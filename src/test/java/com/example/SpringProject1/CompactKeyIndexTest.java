@@ -0,0 +1,211 @@
+package com.example.SpringProject1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.SpringProject1.FileUtill.FileUtil;
+import com.example.SpringProject1.Model.KvEntry;
+import com.example.SpringProject1.Service.CompactKeyIndex;
+import com.example.SpringProject1.config.JacksonConfig;
+
+public class CompactKeyIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CompactKeyIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new CompactKeyIndex();
+    }
+
+    @Test
+    public void testPutIfAbsent_NewKey() {
+        assertTrue(index.putIfAbsent("username", new KvEntry("username", "john_doe", null)));
+
+        KvEntry entry = index.get("username");
+        assertNotNull(entry);
+        assertEquals("john_doe", entry.getValue());
+        assertNull(entry.getTtl());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testPutIfAbsent_ExistingKey() {
+        index.putIfAbsent("username", new KvEntry("username", "john_doe", null));
+
+        assertFalse(index.putIfAbsent("username", new KvEntry("username", "jane_doe", null)));
+        assertEquals("john_doe", index.get("username").getValue());
+    }
+
+    @Test
+    public void testGet_KeepsTtl() {
+        LocalDateTime ttl = LocalDateTime.now().plusSeconds(3600);
+        index.putIfAbsent("session", new KvEntry("session", "abc", ttl));
+
+        assertEquals(ttl.withNano(ttl.getNano() / 1_000_000 * 1_000_000), index.get("session").getTtl());
+    }
+
+    @Test
+    public void testRemove() {
+        index.putIfAbsent("username", new KvEntry("username", "john_doe", null));
+
+        assertTrue(index.remove("username"));
+        assertFalse(index.remove("username"));
+        assertNull(index.get("username"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testManyKeys_ResizeAndRemove() {
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(index.putIfAbsent("key" + i, new KvEntry("key" + i, "value" + i, null)));
+        }
+        for (int i = 0; i < 10_000; i += 2) {
+            assertTrue(index.remove("key" + i));
+        }
+
+        assertEquals(5_000, index.size());
+        for (int i = 0; i < 10_000; i++) {
+            KvEntry entry = index.get("key" + i);
+            if (i % 2 == 0) {
+                assertNull(entry);
+            } else {
+                assertEquals("value" + i, entry.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void testForEach_VisitsAllEntries() {
+        Map<String, KvEntry> entries = new HashMap<>();
+        entries.put("a", new KvEntry("a", "1", null));
+        entries.put("\u043a\u043b\u044e\u0447", new KvEntry("\u043a\u043b\u044e\u0447", "2", null));
+        index.putAll(entries);
+
+        Map<String, String> visited = new HashMap<>();
+        index.forEach((key, value, ttl) -> visited.put(key, value));
+
+        assertEquals(Map.of("a", "1", "\u043a\u043b\u044e\u0447", "2"), visited);
+    }
+
+    @Test
+    public void testRemoveIfExpired_KeepsLiveAndAbsentKeys() {
+        index.putIfAbsent("username", new KvEntry("username", "john_doe", null));
+
+        assertFalse(index.removeIfExpired("username"));
+        assertFalse(index.removeIfExpired("non_existing_key"));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemoveIfExpired_RemovesExpiredKey() throws Exception {
+        index.putIfAbsent("session", new KvEntry("session", "abc", LocalDateTime.now().plusNanos(100_000_000)));
+        Thread.sleep(150);
+
+        assertNull(index.get("session"));
+        assertTrue(index.removeIfExpired("session"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testConcurrentReadsDuringResizeAndRemove() throws Exception {
+        for (int i = 0; i < 1_000; i++) {
+            index.putIfAbsent("stable" + i, new KvEntry("stable" + i, "value" + i, null));
+        }
+
+        Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        AtomicBoolean writersDone = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        List<Thread> readers = new ArrayList<>();
+
+        for (int w = 0; w < 4; w++) {
+            int id = w;
+            writers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    // Grow the segments, then empty them again with backward-shift deletes
+                    for (int round = 0; round < 5; round++) {
+                        for (int i = 0; i < 5_000; i++) {
+                            index.putIfAbsent("churn" + id + "-" + i, new KvEntry("churn", "x", null));
+                        }
+                        for (int i = 0; i < 5_000; i++) {
+                            index.remove("churn" + id + "-" + i);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+        for (int r = 0; r < 4; r++) {
+            readers.add(new Thread(() -> {
+                try {
+                    start.await();
+                    while (!writersDone.get()) {
+                        for (int i = 0; i < 1_000; i++) {
+                            KvEntry entry = index.get("stable" + i);
+                            if (entry == null || !("value" + i).equals(entry.getValue())) {
+                                throw new AssertionError("Lost stable key: stable" + i);
+                            }
+                            index.removeIfExpired("stable" + i);
+                        }
+                    }
+                } catch (Throwable t) {
+                    failures.add(t);
+                }
+            }));
+        }
+
+        writers.forEach(Thread::start);
+        readers.forEach(Thread::start);
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        writersDone.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Concurrent access failed: " + failures);
+        assertEquals(1_000, index.size());
+    }
+
+    @Test
+    public void testJsonFormat_LoadsAsKvEntryMap() {
+        FileUtil fileUtil = new FileUtil(new JacksonConfig().objectMapper());
+        String filePath = tempDir.resolve("kvstore.json").toString();
+        LocalDateTime ttl = LocalDateTime.now().plusSeconds(3600);
+        index.putIfAbsent("username", new KvEntry("username", "john_doe", null));
+        index.putIfAbsent("session", new KvEntry("session", "abc", ttl));
+
+        fileUtil.saveToFile(filePath, index);
+        Map<String, KvEntry> loaded = fileUtil.loadFromFile(filePath, KvEntry.class);
+
+        assertEquals(2, loaded.size());
+        assertEquals(new KvEntry("username", "john_doe", null), loaded.get("username"));
+        assertEquals(new KvEntry("session", "abc", ttl.truncatedTo(ChronoUnit.SECONDS)), loaded.get("session"));
+    }
+}
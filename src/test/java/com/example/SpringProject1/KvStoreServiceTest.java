@@ -0,0 +1,112 @@
+package com.example.SpringProject1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.SpringProject1.FileUtill.FileUtil;
+import com.example.SpringProject1.Service.CompactKeyIndex;
+import com.example.SpringProject1.Service.KvStoreService;
+import com.example.SpringProject1.Service.WriteAdmissionControl;
+import com.example.SpringProject1.config.JacksonConfig;
+
+public class KvStoreServiceTest {
+
+    private RecordingFileUtil fileUtil;
+
+    private KvStoreService service;
+
+    @BeforeEach
+    public void setUp() {
+        fileUtil = new RecordingFileUtil();
+        // A single permit, so a leaked permit makes the next write fail
+        service = new KvStoreService(fileUtil, new WriteAdmissionControl(1, 10));
+    }
+
+    @Test
+    public void testCreate_InvalidTtlReleasesPermit() {
+        assertThrows(IllegalArgumentException.class, () -> service.create("username", "john_doe", -10));
+        assertThrows(IllegalArgumentException.class, () -> service.batchCreate(Map.of("email", "john"), -10));
+
+        assertEquals("Key-Value pair created!", service.create("username", "john_doe", null));
+    }
+
+    @Test
+    public void testDelete_MissingKeyDoesNotSave() {
+        assertEquals("Key not found!", service.delete("non_existing_key"));
+        assertEquals(0, fileUtil.saves.get());
+
+        service.create("username", "john_doe", null);
+        assertEquals("Key deleted!", service.delete("username"));
+        assertEquals(2, fileUtil.saves.get());
+    }
+
+    @Test
+    public void testConcurrentWrites_ShareSaves() throws Exception {
+        fileUtil.saveMillis = 50;
+        service = new KvStoreService(fileUtil, new WriteAdmissionControl(64, 5000));
+        int writers = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            String key = "key" + i;
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    service.create(key, "value", null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int i = 0; i < writers; i++) {
+            assertNotNull(service.read("key" + i));
+        }
+        assertTrue(fileUtil.saves.get() < writers, () -> "Expected coalesced saves, got " + fileUtil.saves.get());
+        assertEquals(writers, fileUtil.lastSavedSize);  // The last save covers every write
+    }
+
+    /**
+     * FileUtil that records saves instead of writing files.
+     */
+    private static class RecordingFileUtil extends FileUtil {
+
+        final AtomicInteger saves = new AtomicInteger();
+
+        volatile long saveMillis;
+
+        volatile int lastSavedSize;
+
+        RecordingFileUtil() {
+            super(new JacksonConfig().objectMapper());
+        }
+
+        @Override
+        public synchronized void saveToFile(String filePath, Object data) {
+            saves.incrementAndGet();
+            lastSavedSize = ((CompactKeyIndex) data).size();
+            try {
+                Thread.sleep(saveMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
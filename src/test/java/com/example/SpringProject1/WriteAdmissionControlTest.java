@@ -0,0 +1,54 @@
+package com.example.SpringProject1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.SpringProject1.Service.StoreOverloadedException;
+import com.example.SpringProject1.Service.WriteAdmissionControl;
+
+public class WriteAdmissionControlTest {
+
+    @Test
+    public void testAcquire_RejectsWhenPendingLimitReached() {
+        WriteAdmissionControl admission = new WriteAdmissionControl(2, 10);
+        admission.acquire();
+        admission.acquire();
+
+        StoreOverloadedException e = assertThrows(StoreOverloadedException.class, admission::acquire);
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1L, admission.getStats().get("rejectedWrites"));
+
+        admission.release();
+        admission.acquire();  // A released permit admits the next write
+        assertEquals(2, admission.getPendingWrites());
+    }
+
+    @Test
+    public void testAcquire_SlowFlushesStillAdmitUpToPendingLimit() {
+        WriteAdmissionControl admission = new WriteAdmissionControl(10, 100);
+        admission.recordFlush(5000);
+
+        // Coalesced saves persist all pending writes together, so slow flushes
+        // alone must not shed writes while permits are free
+        for (int i = 0; i < 10; i++) {
+            admission.acquire();
+        }
+        assertEquals(10, admission.getPendingWrites());
+    }
+
+    @Test
+    public void testAcquire_ShedsWithoutWaitingWhenFlushTooSlowToFreePermit() {
+        WriteAdmissionControl admission = new WriteAdmissionControl(1, 1000);
+        admission.recordFlush(5000);
+        admission.acquire();
+
+        long start = System.nanoTime();
+        StoreOverloadedException e = assertThrows(StoreOverloadedException.class, admission::acquire);
+
+        assertTrue(System.nanoTime() - start < 500_000_000L, () -> "Write should be shed without waiting");
+        assertEquals(5, e.getRetryAfterSeconds());
+    }
+}